@@ -0,0 +1,107 @@
+package com.bejibx.android.view;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link HexDecoder} with per-char path where every char is checked through
+ * {@link CharFilter} and converted with {@link Character#digit(char, int)}.
+ *
+ * Run with "gradlew :benchmark:jmh".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class HexDecoderBenchmark
+{
+    private static final int ADDRESSES_COUNT = 1024;
+    private static final int[] DIGIT_POSITIONS = {0, 1, 3, 4, 6, 7, 9, 10, 12, 13, 15, 16};
+    private static final char[] HEX_CHARS = "0123456789ABCDEFabcdef".toCharArray();
+
+    private final CharFilter mFilter = new HexCharFilter(' ');
+
+    private String mAddress;
+    private String[] mAddresses;
+    private long[] mValues;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(42);
+        mAddresses = new String[ADDRESSES_COUNT];
+        for (int i = 0; i < ADDRESSES_COUNT; i++)
+        {
+            StringBuilder builder = new StringBuilder();
+            for (int j = 0; j < 6; j++)
+            {
+                if (j > 0)
+                {
+                    builder.append(':');
+                }
+                builder.append(HEX_CHARS[random.nextInt(HEX_CHARS.length)]);
+                builder.append(HEX_CHARS[random.nextInt(HEX_CHARS.length)]);
+            }
+            mAddresses[i] = builder.toString();
+        }
+        mAddress = mAddresses[0];
+        mValues = new long[ADDRESSES_COUNT];
+    }
+
+    @Benchmark
+    public long singlePerChar()
+    {
+        return decodePerChar(mAddress);
+    }
+
+    @Benchmark
+    public long singleSwar()
+    {
+        return HexDecoder.parseMacAddress(mAddress);
+    }
+
+    @Benchmark
+    public long[] bulkPerChar()
+    {
+        for (int i = 0; i < ADDRESSES_COUNT; i++)
+        {
+            mValues[i] = decodePerChar(mAddresses[i]);
+        }
+        return mValues;
+    }
+
+    @Benchmark
+    public long[] bulkSwar()
+    {
+        HexDecoder.parseMacAddresses(mAddresses, mValues);
+        return mValues;
+    }
+
+    private long decodePerChar(CharSequence address)
+    {
+        long value = 0;
+        for (int position : DIGIT_POSITIONS)
+        {
+            char c = address.charAt(position);
+            if (!mFilter.isValidChar(c))
+            {
+                return HexDecoder.INVALID;
+            }
+            value = (value << 4) | Character.digit(c, 16);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,163 @@
+package com.bejibx.android.view;
+
+/**
+ * Mask with all lookup tables precomputed: which positions are selectable, where selection goes
+ * when moving forward or backward from every position and how empty mask looks like.
+ *
+ * Masks declared in core/build.gradle are turned into selectable positions and empty masks at
+ * build time and stored in {@link CompiledMasks}, so loading them does not require any parsing.
+ * Generated masks treat 'H' as the only selectable character and use ' ' as filler. Masks set
+ * from string in EditMacAddress are compiled at runtime. Both go through
+ * {@link #compile(String, boolean[], String, char)}, so tables are built by single implementation.
+ */
+public final class CompiledMask
+{
+    private final String mPattern;
+    private final boolean[] mSelectable;
+    private final int[] mNextSelectable;
+    private final int[] mPreviousSelectable;
+    private final int mFirstSelectable;
+    private final int mLastSelectable;
+    private final String mEmptyMask;
+    private final char mEmptyMaskFiller;
+
+    private CompiledMask(String pattern, boolean[] selectable, int[] nextSelectable,
+                         int[] previousSelectable, int firstSelectable, int lastSelectable,
+                         String emptyMask, char emptyMaskFiller)
+    {
+        mPattern = pattern;
+        mSelectable = selectable;
+        mNextSelectable = nextSelectable;
+        mPreviousSelectable = previousSelectable;
+        mFirstSelectable = firstSelectable;
+        mLastSelectable = lastSelectable;
+        mEmptyMask = emptyMask;
+        mEmptyMaskFiller = emptyMaskFiller;
+    }
+
+    /**
+     * Build navigation tables for mask which selectable positions are already known.
+     *
+     * @param emptyMask mask with fillers on every position
+     * @param filler    filler used on selectable positions of emptyMask
+     */
+    public static CompiledMask compile(String pattern, boolean[] selectable, String emptyMask,
+                                       char filler)
+    {
+        int length = selectable.length;
+        if (pattern.length() != length || emptyMask.length() != length)
+        {
+            throw new IllegalArgumentException(String.format(
+                    "Pattern \"%s\", selectable positions and empty mask \"%s\" differ in length",
+                    pattern, emptyMask));
+        }
+        selectable = selectable.clone();
+
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < length; i++)
+        {
+            if (selectable[i])
+            {
+                if (first < 0)
+                {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        if (first < 0)
+        {
+            first = 0;
+            last = 0;
+        }
+
+        int[] next = new int[length];
+        int target = last;
+        for (int i = length - 1; i >= 0; i--)
+        {
+            next[i] = target;
+            if (selectable[i])
+            {
+                target = i;
+            }
+        }
+
+        int[] previous = new int[length];
+        target = first;
+        for (int i = 0; i < length; i++)
+        {
+            previous[i] = target;
+            if (selectable[i])
+            {
+                target = i;
+            }
+        }
+
+        return new CompiledMask(pattern, selectable, next, previous, first, last, emptyMask, filler);
+    }
+
+    public String getPattern()
+    {
+        return mPattern;
+    }
+
+    public int getLength()
+    {
+        return mSelectable.length;
+    }
+
+    public boolean isSelectable(int position)
+    {
+        return mSelectable[position];
+    }
+
+    /**
+     * @return first selectable position after given one or last selectable position if there is
+     * no such position
+     */
+    public int getNextSelectable(int position)
+    {
+        return mNextSelectable[position];
+    }
+
+    /**
+     * @return last selectable position before given one or first selectable position if there is
+     * no such position
+     */
+    public int getPreviousSelectable(int position)
+    {
+        return mPreviousSelectable[position];
+    }
+
+    public int getFirstSelectable()
+    {
+        return mFirstSelectable;
+    }
+
+    public int getLastSelectable()
+    {
+        return mLastSelectable;
+    }
+
+    /**
+     * @return mask with given filler on selectable positions and delimiters on the rest
+     */
+    public String getEmptyMask(char filler)
+    {
+        if (filler == mEmptyMaskFiller)
+        {
+            return mEmptyMask;
+        }
+
+        char[] chars = mEmptyMask.toCharArray();
+        for (int i = 0; i < chars.length; i++)
+        {
+            if (mSelectable[i])
+            {
+                chars[i] = filler;
+            }
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,253 @@
+package com.bejibx.android.view;
+
+/**
+ * Decodes hex digits eight at a time. Chars are loaded into a long one byte per char, then all
+ * eight bytes are validated and converted to nibbles with plain bit arithmetic, without branching
+ * on every char and without going through {@link CharFilter} for each of them.
+ *
+ * Values are returned as longs where first digit is the most significant one. Since -1 is used to
+ * report invalid input, at most {@link #MAX_DIGITS} digits could be decoded at once.
+ */
+public final class HexDecoder
+{
+    public static final int MAX_DIGITS = 15;
+    public static final long INVALID = -1;
+
+    private static final int CHARS_PER_WORD = 8;
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long LOW_NIBBLES = 0x0F0F0F0F0F0F0F0FL;
+    private static final long LOWER_CASE_BITS = 0x2020202020202020L;
+
+    /* Byte which never passes validation. Used for chars outside of ASCII */
+    private static final int NON_ASCII = 0xFF;
+
+    /* Value of every ASCII char as hex digit, -1 for chars which are not hex digits */
+    private static final byte[] DIGITS = new byte[0x80];
+
+    static
+    {
+        for (int c = 0; c < DIGITS.length; c++)
+        {
+            DIGITS[c] = -1;
+        }
+        for (int i = 0; i < 10; i++)
+        {
+            DIGITS['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++)
+        {
+            DIGITS['a' + i] = (byte) (10 + i);
+            DIGITS['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    /* Positions of digits in "HH:HH:HH:HH:HH:HH" formatted address */
+    private static final int[] MAC_ADDRESS_DIGITS = {0, 1, 3, 4, 6, 7, 9, 10, 12, 13, 15, 16};
+    private static final int MAC_ADDRESS_LENGTH = 17;
+
+    private HexDecoder()
+    {
+    }
+
+    /**
+     * Per-char counterpart of word decoding, used when only one char changes.
+     *
+     * @return value of single hex digit or -1 if c is not a hex digit
+     */
+    public static int digit(char c)
+    {
+        return c < DIGITS.length ? DIGITS[c] : -1;
+    }
+
+    /**
+     * Decode hex digits located in text on given positions.
+     *
+     * @return decoded value or {@link #INVALID} if any of chars is not a hex digit
+     */
+    public static long decode(CharSequence text, int[] positions)
+    {
+        int count = positions.length;
+        checkCount(count);
+
+        long result = 0;
+        for (int i = 0; i < count; i += CHARS_PER_WORD)
+        {
+            int chunk = Math.min(CHARS_PER_WORD, count - i);
+            long value = decodeWord(load(text, positions, i, chunk));
+            if (value == INVALID)
+            {
+                return INVALID;
+            }
+            result = (result << (chunk * 4)) | (value >>> ((CHARS_PER_WORD - chunk) * 4));
+        }
+        return result;
+    }
+
+    /**
+     * Decode count hex digits starting from offset.
+     *
+     * @return decoded value or {@link #INVALID} if any of chars is not a hex digit
+     */
+    public static long decode(CharSequence text, int offset, int count)
+    {
+        checkCount(count);
+
+        long result = 0;
+        for (int i = 0; i < count; i += CHARS_PER_WORD)
+        {
+            int chunk = Math.min(CHARS_PER_WORD, count - i);
+            long value = decodeWord(load(text, offset + i, chunk));
+            if (value == INVALID)
+            {
+                return INVALID;
+            }
+            result = (result << (chunk * 4)) | (value >>> ((CHARS_PER_WORD - chunk) * 4));
+        }
+        return result;
+    }
+
+    /**
+     * Parse MAC address formatted either as 12 hex digits or as 6 groups of 2 hex digits divided
+     * by single char delimiter, like "DE:AD:BE:EF:00:01". Delimiter could be any char except hex
+     * digits, but it must be the same between all groups.
+     *
+     * @return 48-bit address value or {@link #INVALID} if text is not a MAC address
+     */
+    public static long parseMacAddress(CharSequence text)
+    {
+        int length = text.length();
+        if (length == MAC_ADDRESS_DIGITS.length)
+        {
+            return decode(text, 0, length);
+        }
+        else if (length == MAC_ADDRESS_LENGTH)
+        {
+            char delimiter = text.charAt(2);
+            if (digit(delimiter) >= 0)
+            {
+                return INVALID;
+            }
+            for (int i = 5; i < MAC_ADDRESS_LENGTH; i += 3)
+            {
+                if (text.charAt(i) != delimiter)
+                {
+                    return INVALID;
+                }
+            }
+            return decode(text, MAC_ADDRESS_DIGITS);
+        }
+        else
+        {
+            return INVALID;
+        }
+    }
+
+    /**
+     * Parse every address with {@link #parseMacAddress(CharSequence)}.
+     *
+     * @param values receives parsed values, {@link #INVALID} for addresses which failed to parse
+     * @return count of successfully parsed addresses
+     */
+    public static int parseMacAddresses(CharSequence[] addresses, long[] values)
+    {
+        if (values.length < addresses.length)
+        {
+            throw new IllegalArgumentException(String.format(
+                    "values length %d is less than addresses count %d",
+                    values.length, addresses.length));
+        }
+
+        int parsed = 0;
+        for (int i = 0; i < addresses.length; i++)
+        {
+            long value = parseMacAddress(addresses[i]);
+            values[i] = value;
+            if (value != INVALID)
+            {
+                parsed++;
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Load up to 8 chars into long, first char goes to the highest byte. Missing chars are
+     * padded with '0'.
+     */
+    static long load(CharSequence text, int offset, int count)
+    {
+        long word = 0;
+        for (int i = 0; i < CHARS_PER_WORD; i++)
+        {
+            word = (word << 8) | (i < count ? toByte(text.charAt(offset + i)) : '0');
+        }
+        return word;
+    }
+
+    /**
+     * Same as {@link #load(CharSequence, int, int)}, but chars are taken from given positions.
+     */
+    static long load(CharSequence text, int[] positions, int from, int count)
+    {
+        long word = 0;
+        for (int i = 0; i < CHARS_PER_WORD; i++)
+        {
+            word = (word << 8) | (i < count ? toByte(text.charAt(positions[from + i])) : '0');
+        }
+        return word;
+    }
+
+    /**
+     * Validate 8 loaded chars and decode them to 32-bit value.
+     *
+     * @return decoded value or {@link #INVALID} if any of bytes is not ASCII hex digit
+     */
+    static long decodeWord(long word)
+    {
+        /* Clear high bits so per-byte additions below never carry into neighbour byte */
+        long ascii = word & LOW_BITS;
+        long lower = ascii | LOWER_CASE_BITS;
+
+        long digits = greaterOrEqual(ascii, '0') & ~greaterOrEqual(ascii, '9' + 1);
+        long letters = greaterOrEqual(lower, 'a') & ~greaterOrEqual(lower, 'f' + 1);
+
+        if (((digits | letters) & ~word & HIGH_BITS) != HIGH_BITS)
+        {
+            return INVALID;
+        }
+
+        /* '0'..'9' have value in low nibble already, 'a'..'f' and 'A'..'F' need 9 more */
+        long nibbles = (word & LOW_NIBBLES) + (letters >>> 7) * 9;
+
+        /* Squeeze nibbles together: 8 bytes -> 4 bytes -> 2 shorts -> 1 int */
+        nibbles = (nibbles | (nibbles >>> 4)) & 0x00FF00FF00FF00FFL;
+        nibbles = (nibbles | (nibbles >>> 8)) & 0x0000FFFF0000FFFFL;
+        nibbles = (nibbles | (nibbles >>> 16)) & 0x00000000FFFFFFFFL;
+        return nibbles;
+    }
+
+    /**
+     * @return high bit set in every byte which is greater or equal to c. Bytes must be below 0x80.
+     */
+    private static long greaterOrEqual(long bytes, int c)
+    {
+        return (bytes + (0x80 - c) * ONES) & HIGH_BITS;
+    }
+
+    private static int toByte(char c)
+    {
+        return c < 0x80 ? c : NON_ASCII;
+    }
+
+    private static void checkCount(int count)
+    {
+        if (count < 0 || count > MAX_DIGITS)
+        {
+            throw new IllegalArgumentException(String.format(
+                    "Can't decode %d digits, maximum is %d", count, MAX_DIGITS));
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.bejibx.android.view;
+
+/**
+ * Tracks which selectable positions (slots) of a mask are filled and what hex value they hold.
+ * State is updated only for changed range of text, so all queries are answered in constant time
+ * without scanning text.
+ *
+ * Slot counts as filled when its filter accepts the char. Separately every slot remembers if it
+ * holds a hex digit, because custom filters could accept chars which are not hex digits.
+ */
+public final class SlotState
+{
+    private static final int BITS_PER_WORD = 64;
+
+    private final CharFilter[] mFilters;
+    /* Index of slot for every mask position, -1 for delimiters */
+    private final int[] mPositionSlots;
+    /* Positions filled by HexCharFilter, checked with HexDecoder instead of filter */
+    private final boolean[] mHexPositions;
+    /* Mask positions of slots in order, used to decode whole text with HexDecoder at once */
+    private final int[] mSlotPositions;
+    /* True when every slot uses HexCharFilter */
+    private final boolean mAllSlotsHex;
+    private final boolean mTrackValue;
+
+    /* Bit per slot, set when slot is filled */
+    private final long[] mFilledSlots;
+    /* Bit per slot, set when slot holds hex digit */
+    private final long[] mHexSlots;
+    private int mFilledCount = 0;
+    private int mHexCount = 0;
+    /* Nibble per slot, first slot is the most significant one. Slots without hex digit are zeros */
+    private long mValue = 0;
+
+    /**
+     * @param filters filter for every position of mask
+     */
+    public SlotState(CompiledMask mask, CharFilter[] filters)
+    {
+        int length = mask.getLength();
+        if (filters.length != length)
+        {
+            throw new IllegalArgumentException(String.format(
+                    "Got %d filters for mask \"%s\" of length %d",
+                    filters.length, mask.getPattern(), length));
+        }
+
+        int slotCount = 0;
+        int[] positionSlots = new int[length];
+        boolean[] hexPositions = new boolean[length];
+        boolean allSlotsHex = true;
+        for (int i = 0; i < length; i++)
+        {
+            positionSlots[i] = mask.isSelectable(i) ? slotCount++ : -1;
+            hexPositions[i] = filters[i] instanceof HexCharFilter;
+            if (positionSlots[i] >= 0 && !hexPositions[i])
+            {
+                allSlotsHex = false;
+            }
+        }
+
+        int[] slotPositions = new int[slotCount];
+        for (int i = 0; i < length; i++)
+        {
+            if (positionSlots[i] >= 0)
+            {
+                slotPositions[positionSlots[i]] = i;
+            }
+        }
+
+        mFilters = filters.clone();
+        mPositionSlots = positionSlots;
+        mHexPositions = hexPositions;
+        mSlotPositions = slotPositions;
+        mAllSlotsHex = allSlotsHex;
+        mTrackValue = slotCount <= HexDecoder.MAX_DIGITS;
+
+        int words = (slotCount + BITS_PER_WORD - 1) / BITS_PER_WORD;
+        mFilledSlots = new long[words];
+        mHexSlots = new long[words];
+    }
+
+    /**
+     * Update state after chars in range [start, end) of text were changed. If text length does
+     * not match mask, all slots are considered empty.
+     */
+    public void update(CharSequence text, int start, int end)
+    {
+        int length = mPositionSlots.length;
+        if (text.length() != length)
+        {
+            clear();
+            return;
+        }
+
+        int from = Math.max(start, 0);
+        int to = Math.min(end, length);
+
+        /* Whole text replaced (setText, paste over everything): validate and decode it at once */
+        if (from == 0 && to == length && mAllSlotsHex && mTrackValue && getSlotCount() > 0)
+        {
+            long value = HexDecoder.decode(text, mSlotPositions);
+            if (value != HexDecoder.INVALID)
+            {
+                fill(value);
+                return;
+            }
+        }
+
+        for (int i = from; i < to; i++)
+        {
+            int slot = mPositionSlots[i];
+            if (slot >= 0)
+            {
+                updateSlot(slot, i, text.charAt(i));
+            }
+        }
+    }
+
+    /**
+     * Mark every slot as empty.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < mFilledSlots.length; i++)
+        {
+            mFilledSlots[i] = 0;
+            mHexSlots[i] = 0;
+        }
+        mFilledCount = 0;
+        mHexCount = 0;
+        mValue = 0;
+    }
+
+    private void fill(long value)
+    {
+        int slotCount = getSlotCount();
+        /* Only used when value is tracked, so there are less than 64 slots */
+        long all = (1L << slotCount) - 1;
+        mFilledSlots[0] = all;
+        mHexSlots[0] = all;
+        mFilledCount = slotCount;
+        mHexCount = slotCount;
+        mValue = value;
+    }
+
+    private void updateSlot(int slot, int position, char c)
+    {
+        int digit = HexDecoder.digit(c);
+        boolean filled = mHexPositions[position] ? digit >= 0 : mFilters[position].isValidChar(c);
+
+        int word = slot / BITS_PER_WORD;
+        long bit = 1L << slot;
+
+        if (filled != ((mFilledSlots[word] & bit) != 0))
+        {
+            mFilledSlots[word] ^= bit;
+            mFilledCount += filled ? 1 : -1;
+        }
+
+        boolean hex = digit >= 0;
+        if (hex != ((mHexSlots[word] & bit) != 0))
+        {
+            mHexSlots[word] ^= bit;
+            mHexCount += hex ? 1 : -1;
+        }
+
+        if (mTrackValue)
+        {
+            int shift = (getSlotCount() - 1 - slot) * 4;
+            long nibble = hex ? digit : 0;
+            mValue = (mValue & ~(0xFL << shift)) | (nibble << shift);
+        }
+    }
+
+    public int getSlotCount()
+    {
+        return mSlotPositions.length;
+    }
+
+    public boolean isPositionFilled(int position)
+    {
+        int slot = mPositionSlots[position];
+        return slot >= 0 && (mFilledSlots[slot / BITS_PER_WORD] & (1L << slot)) != 0;
+    }
+
+    /**
+     * @return true if every slot is filled
+     */
+    public boolean isComplete()
+    {
+        return getSlotCount() > 0 && mFilledCount == getSlotCount();
+    }
+
+    public int getFilledCount()
+    {
+        return mFilledCount;
+    }
+
+    /**
+     * @return bit mask where bit n is set if n-th slot is filled. Only first 64 slots are
+     * included.
+     */
+    public long getFilledSlots()
+    {
+        return mFilledSlots.length > 0 ? mFilledSlots[0] : 0;
+    }
+
+    /**
+     * Digits packed into number, first slot is the most significant one. Slots without hex
+     * digit are zeros. Always 0 for masks with more than {@link HexDecoder#MAX_DIGITS} slots.
+     */
+    public long getValue()
+    {
+        return mValue;
+    }
+
+    /**
+     * @return value if every slot is filled and holds hex digit, {@link HexDecoder#INVALID}
+     * otherwise or if mask has more than {@link HexDecoder#MAX_DIGITS} slots
+     */
+    public long getMacAddress()
+    {
+        if (!mTrackValue || !isComplete() || mHexCount != getSlotCount())
+        {
+            return HexDecoder.INVALID;
+        }
+        return mValue;
+    }
+}
@@ -0,0 +1,126 @@
+package com.bejibx.android.view;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CompiledMaskTest
+{
+    @Test
+    public void compileBuildsNavigationTables()
+    {
+        CompiledMask mask = compile("HH:H");
+
+        assertArrayEquals(new int[]{1, 3, 3, 3}, nextTable(mask));
+        assertArrayEquals(new int[]{0, 0, 1, 1}, previousTable(mask));
+        assertEquals(0, mask.getFirstSelectable());
+        assertEquals(3, mask.getLastSelectable());
+        assertEquals("  : ", mask.getEmptyMask(' '));
+        assertEquals("__:_", mask.getEmptyMask('_'));
+    }
+
+    @Test
+    public void compileWithoutSelectablePositions()
+    {
+        CompiledMask mask = compile("::");
+
+        assertEquals(0, mask.getFirstSelectable());
+        assertEquals(0, mask.getLastSelectable());
+        assertArrayEquals(new int[]{0, 0}, nextTable(mask));
+        assertArrayEquals(new int[]{0, 0}, previousTable(mask));
+    }
+
+    @Test
+    public void compileCopiesSelectablePositions()
+    {
+        boolean[] selectable = {true, false};
+        CompiledMask mask = CompiledMask.compile("H:", selectable, " :", ' ');
+        selectable[1] = true;
+
+        assertEquals(false, mask.isSelectable(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compileRejectsLengthMismatch()
+    {
+        CompiledMask.compile("HH", new boolean[]{true}, "  ", ' ');
+    }
+
+    @Test
+    public void generatedMasksMatchRuntimeCompilation()
+    {
+        CompiledMask[] generated = {CompiledMasks.DEFAULT, CompiledMasks.DASHED, CompiledMasks.DOTTED};
+        for (CompiledMask mask : generated)
+        {
+            String pattern = mask.getPattern();
+            CompiledMask compiled = compile(pattern);
+
+            assertEquals(pattern, compiled.getLength(), mask.getLength());
+            for (int i = 0; i < compiled.getLength(); i++)
+            {
+                assertEquals(pattern, compiled.isSelectable(i), mask.isSelectable(i));
+            }
+            assertArrayEquals(pattern, nextTable(compiled), nextTable(mask));
+            assertArrayEquals(pattern, previousTable(compiled), previousTable(mask));
+            assertEquals(pattern, compiled.getEmptyMask(' '), mask.getEmptyMask(' '));
+        }
+    }
+
+    @Test
+    public void defaultMaskTables()
+    {
+        CompiledMask mask = CompiledMasks.DEFAULT;
+
+        assertEquals("HH:HH:HH:HH:HH:HH", mask.getPattern());
+        assertEquals("  :  :  :  :  :  ", mask.getEmptyMask(' '));
+        assertArrayEquals(new int[]{1, 3, 3, 4, 6, 6, 7, 9, 9, 10, 12, 12, 13, 15, 15, 16, 16},
+                nextTable(mask));
+        assertArrayEquals(new int[]{0, 0, 1, 1, 3, 4, 4, 6, 7, 7, 9, 10, 10, 12, 13, 13, 15},
+                previousTable(mask));
+        assertEquals(0, mask.getFirstSelectable());
+        assertEquals(16, mask.getLastSelectable());
+    }
+
+    @Test
+    public void generatedMasksAreFoundByNameAndPattern()
+    {
+        assertEquals(CompiledMasks.DEFAULT, CompiledMasks.forName("DEFAULT"));
+        assertEquals(CompiledMasks.DEFAULT, CompiledMasks.forPattern("HH:HH:HH:HH:HH:HH"));
+        assertEquals(null, CompiledMasks.forName("HH:HH:HH:HH:HH:HH"));
+        assertEquals(null, CompiledMasks.forPattern("DEFAULT"));
+    }
+
+    /* Same rules as generator: 'H' is selectable, everything else is delimiter */
+    private static CompiledMask compile(String pattern)
+    {
+        boolean[] selectable = new boolean[pattern.length()];
+        StringBuilder emptyMask = new StringBuilder();
+        for (int i = 0; i < selectable.length; i++)
+        {
+            selectable[i] = pattern.charAt(i) == 'H';
+            emptyMask.append(selectable[i] ? ' ' : pattern.charAt(i));
+        }
+        return CompiledMask.compile(pattern, selectable, emptyMask.toString(), ' ');
+    }
+
+    private static int[] nextTable(CompiledMask mask)
+    {
+        int[] table = new int[mask.getLength()];
+        for (int i = 0; i < table.length; i++)
+        {
+            table[i] = mask.getNextSelectable(i);
+        }
+        return table;
+    }
+
+    private static int[] previousTable(CompiledMask mask)
+    {
+        int[] table = new int[mask.getLength()];
+        for (int i = 0; i < table.length; i++)
+        {
+            table[i] = mask.getPreviousSelectable(i);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,158 @@
+package com.bejibx.android.view;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class HexDecoderTest
+{
+    private static final String HEX_CHARS = "0123456789abcdefABCDEF";
+
+    /* Only ASCII digits are accepted, Character.digit also knows about full width ones */
+    private static int expectedDigit(char c)
+    {
+        return c < 0x80 ? Character.digit(c, 16) : -1;
+    }
+
+    @Test
+    public void digitMatchesCharacterDigit()
+    {
+        for (int c = 0; c < 0x10000; c++)
+        {
+            assertEquals("char " + c, expectedDigit((char) c), HexDecoder.digit((char) c));
+        }
+    }
+
+    @Test
+    public void decodeSingleCharMatchesCharacterDigit()
+    {
+        for (int c = 0; c < 0x10000; c++)
+        {
+            String text = String.valueOf((char) c);
+            assertEquals("char " + c, expectedDigit((char) c), HexDecoder.decode(text, 0, 1));
+        }
+    }
+
+    @Test
+    public void decodeEveryChunkLength()
+    {
+        Random random = new Random(42);
+        for (int count = 1; count <= HexDecoder.MAX_DIGITS; count++)
+        {
+            for (int iteration = 0; iteration < 1000; iteration++)
+            {
+                String digits = randomHex(random, count);
+                String text = "xx" + digits + "xx";
+                assertEquals(text, Long.parseLong(digits, 16), HexDecoder.decode(text, 2, count));
+            }
+        }
+    }
+
+    @Test
+    public void decodeMixedCase()
+    {
+        assertEquals(0xDEADBEEFCAFEL, HexDecoder.decode("DeAdBeEfCaFe", 0, 12));
+        assertEquals(0xABCDEFabcdefL, HexDecoder.decode("ABCDEFabcdef", 0, 12));
+        assertEquals(0x0123456789L, HexDecoder.decode("0123456789", 0, 10));
+    }
+
+    @Test
+    public void decodeRejectsInvalidCharOnEveryPosition()
+    {
+        char[] invalid = {' ', ':', '/', '@', 'G', 'g', '`', 'z', '\u00e9', '\uff10', '\u0130'};
+        for (int count = 1; count <= HexDecoder.MAX_DIGITS; count++)
+        {
+            for (int position = 0; position < count; position++)
+            {
+                for (char c : invalid)
+                {
+                    char[] chars = "fedcba987654321".substring(0, count).toCharArray();
+                    chars[position] = c;
+                    String text = new String(chars);
+                    assertEquals(text, HexDecoder.INVALID, HexDecoder.decode(text, 0, count));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void decodeNothing()
+    {
+        assertEquals(0, HexDecoder.decode("", 0, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeRejectsTooManyDigits()
+    {
+        HexDecoder.decode("0123456789abcdef", 0, HexDecoder.MAX_DIGITS + 1);
+    }
+
+    @Test
+    public void decodeAtPositions()
+    {
+        int[] positions = {0, 1, 3, 4, 6, 7, 9, 10, 12};
+        assertEquals(0x12345678aL, HexDecoder.decode("12:34:56:78:a", positions));
+        assertEquals(HexDecoder.INVALID, HexDecoder.decode("12:34:56:78:_", positions));
+    }
+
+    @Test
+    public void parseMacAddressWithoutDelimiters()
+    {
+        assertEquals(0xDEADBEEF0001L, HexDecoder.parseMacAddress("deadBEEF0001"));
+        assertEquals(HexDecoder.INVALID, HexDecoder.parseMacAddress("deadBEEF000g"));
+    }
+
+    @Test
+    public void parseMacAddressWithDelimiters()
+    {
+        assertEquals(0xDEADBEEF0001L, HexDecoder.parseMacAddress("DE:AD:be:ef:00:01"));
+        assertEquals(0xDEADBEEF0001L, HexDecoder.parseMacAddress("DE-AD-be-ef-00-01"));
+        assertEquals(0xDEADBEEF0001L, HexDecoder.parseMacAddress("DE AD be ef 00 01"));
+        assertEquals(HexDecoder.INVALID, HexDecoder.parseMacAddress("DE:AD-be:ef:00:01"));
+        assertEquals(HexDecoder.INVALID, HexDecoder.parseMacAddress("DE:AD:be:ef:00:0z"));
+    }
+
+    @Test
+    public void parseMacAddressRejectsHexDelimiter()
+    {
+        assertEquals(HexDecoder.INVALID, HexDecoder.parseMacAddress("DEAADABEAEFA00A01"));
+        assertEquals(HexDecoder.INVALID, HexDecoder.parseMacAddress("DE0AD0BE0EF000001"));
+    }
+
+    @Test
+    public void parseMacAddressRejectsWrongLength()
+    {
+        assertEquals(HexDecoder.INVALID, HexDecoder.parseMacAddress(""));
+        assertEquals(HexDecoder.INVALID, HexDecoder.parseMacAddress("deadbeef001"));
+        assertEquals(HexDecoder.INVALID, HexDecoder.parseMacAddress("DE:AD:BE:EF:00:1"));
+    }
+
+    @Test
+    public void parseMacAddresses()
+    {
+        CharSequence[] addresses = {"00:11:22:33:44:55", "invalid", "aabbccddeeff"};
+        long[] values = new long[addresses.length];
+
+        assertEquals(2, HexDecoder.parseMacAddresses(addresses, values));
+        assertArrayEquals(new long[]{0x001122334455L, HexDecoder.INVALID, 0xAABBCCDDEEFFL}, values);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseMacAddressesRejectsShortValues()
+    {
+        HexDecoder.parseMacAddresses(new CharSequence[]{"aabbccddeeff"}, new long[0]);
+    }
+
+    private static String randomHex(Random random, int count)
+    {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++)
+        {
+            builder.append(HEX_CHARS.charAt(random.nextInt(HEX_CHARS.length())));
+        }
+        return builder.toString();
+    }
+}
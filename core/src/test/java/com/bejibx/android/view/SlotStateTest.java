@@ -0,0 +1,336 @@
+package com.bejibx.android.view;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SlotStateTest
+{
+    private static final String MAC_MASK = "HH:HH:HH:HH:HH:HH";
+    private static final String EMPTY_MAC = "  :  :  :  :  :  ";
+
+    @Test
+    public void emptyTextHasNothingFilled()
+    {
+        Editor editor = new Editor(MAC_MASK);
+        editor.setText(EMPTY_MAC);
+
+        assertEquals(0, editor.state.getFilledCount());
+        assertEquals(0, editor.state.getFilledSlots());
+        assertEquals(0, editor.state.getValue());
+        assertFalse(editor.state.isComplete());
+        assertEquals(HexDecoder.INVALID, editor.state.getMacAddress());
+    }
+
+    @Test
+    public void typingFillsSlots()
+    {
+        Editor editor = new Editor(MAC_MASK);
+        editor.setText(EMPTY_MAC);
+        editor.replace(0, "D");
+        editor.replace(1, "e");
+        editor.replace(3, "A");
+
+        assertEquals(3, editor.state.getFilledCount());
+        assertEquals(0x7, editor.state.getFilledSlots());
+        assertEquals(0xDEA000000000L, editor.state.getValue());
+        assertTrue(editor.state.isPositionFilled(3));
+        assertFalse(editor.state.isPositionFilled(2));
+        assertFalse(editor.state.isPositionFilled(4));
+    }
+
+    @Test
+    public void firstSlotIsMostSignificant()
+    {
+        Editor editor = new Editor(MAC_MASK);
+        editor.setText(EMPTY_MAC);
+        editor.replace(16, "f");
+        assertEquals(0xFL, editor.state.getValue());
+        assertEquals(1L << 11, editor.state.getFilledSlots());
+
+        editor.replace(0, "a");
+        assertEquals(0xA0000000000FL, editor.state.getValue());
+    }
+
+    @Test
+    public void deleteClearsSlot()
+    {
+        Editor editor = new Editor(MAC_MASK);
+        editor.setText("DE:AD:BE:EF:00:01");
+        assertTrue(editor.state.isComplete());
+
+        editor.replace(4, " ");
+
+        assertFalse(editor.state.isComplete());
+        assertEquals(11, editor.state.getFilledCount());
+        assertEquals(0xFFFL & ~(1L << 3), editor.state.getFilledSlots());
+        assertEquals(0xDEA0BEEF0001L, editor.state.getValue());
+        assertEquals(HexDecoder.INVALID, editor.state.getMacAddress());
+
+        editor.replace(4, "d");
+        assertEquals(0xDEADBEEF0001L, editor.state.getMacAddress());
+    }
+
+    @Test
+    public void pasteUpdatesOnlyChangedRange()
+    {
+        Editor editor = new Editor(MAC_MASK);
+        editor.setText("11:  :  :  :  :22");
+        editor.replace(3, "ab:cd");
+
+        assertEquals(8, editor.state.getFilledCount());
+        assertEquals(0x11ABCD000022L, editor.state.getValue());
+    }
+
+    @Test
+    public void setTextDecodesWholeText()
+    {
+        Editor editor = new Editor(MAC_MASK);
+        editor.setText("DE:AD:be:ef:00:01");
+
+        assertTrue(editor.state.isComplete());
+        assertEquals(12, editor.state.getFilledCount());
+        assertEquals(0xFFF, editor.state.getFilledSlots());
+        assertEquals(0xDEADBEEF0001L, editor.state.getMacAddress());
+    }
+
+    @Test
+    public void setTextWithEmptySlots()
+    {
+        Editor editor = new Editor(MAC_MASK);
+        editor.setText("DE:AD:be:ef:00:0 ");
+
+        assertFalse(editor.state.isComplete());
+        assertEquals(11, editor.state.getFilledCount());
+        assertEquals(0xDEADBEEF0000L, editor.state.getValue());
+    }
+
+    @Test
+    public void setTextAfterBeingComplete()
+    {
+        Editor editor = new Editor(MAC_MASK);
+        editor.setText("DE:AD:be:ef:00:01");
+        editor.setText("12:  :  :  :  :  ");
+
+        assertEquals(2, editor.state.getFilledCount());
+        assertEquals(0x3, editor.state.getFilledSlots());
+        assertEquals(0x120000000000L, editor.state.getValue());
+    }
+
+    @Test
+    public void lengthChangeClearsState()
+    {
+        Editor editor = new Editor(MAC_MASK);
+        editor.setText("DE:AD:be:ef:00:01");
+        editor.setText("");
+
+        assertEquals(0, editor.state.getFilledCount());
+        assertEquals(0, editor.state.getFilledSlots());
+        assertEquals(0, editor.state.getValue());
+        assertFalse(editor.state.isComplete());
+
+        editor.setText("DE:AD:be:ef:00");
+        assertEquals(0, editor.state.getFilledCount());
+
+        editor.setText("DE:AD:be:ef:00:02");
+        assertEquals(0xDEADBEEF0002L, editor.state.getMacAddress());
+    }
+
+    @Test
+    public void randomEditsMatchFullRecalculation()
+    {
+        Random random = new Random(42);
+        String chars = "0123456789abcdefABCDEF :xG";
+        Editor editor = new Editor(MAC_MASK);
+        editor.setText(EMPTY_MAC);
+
+        for (int iteration = 0; iteration < 10000; iteration++)
+        {
+            int start = random.nextInt(MAC_MASK.length());
+            int length = 1 + random.nextInt(MAC_MASK.length() - start);
+            StringBuilder replacement = new StringBuilder();
+            for (int i = 0; i < length; i++)
+            {
+                replacement.append(chars.charAt(random.nextInt(chars.length())));
+            }
+            editor.replace(start, replacement.toString());
+
+            Editor fresh = new Editor(MAC_MASK);
+            fresh.setText(editor.text.toString());
+            String text = editor.text.toString();
+            assertEquals(text, fresh.state.getFilledCount(), editor.state.getFilledCount());
+            assertEquals(text, fresh.state.getFilledSlots(), editor.state.getFilledSlots());
+            assertEquals(text, fresh.state.getValue(), editor.state.getValue());
+            assertEquals(text, fresh.state.getMacAddress(), editor.state.getMacAddress());
+        }
+    }
+
+    @Test
+    public void customFilterCountsAsFilledButNotAsHex()
+    {
+        CharFilter anyLetter = new CharFilter(' ')
+        {
+            @Override
+            protected boolean isSelectable()
+            {
+                return true;
+            }
+
+            @Override
+            protected boolean isValidChar(char c)
+            {
+                return Character.isLetter(c);
+            }
+        };
+        CompiledMask mask = CompiledMask.compile("LL", new boolean[]{true, true}, "  ", ' ');
+        Editor editor = new Editor(mask, new CharFilter[]{anyLetter, anyLetter});
+
+        editor.setText("xa");
+        assertTrue(editor.state.isComplete());
+        assertEquals(0x0AL, editor.state.getValue());
+        assertEquals(HexDecoder.INVALID, editor.state.getMacAddress());
+
+        editor.replace(0, "b");
+        assertEquals(0xBAL, editor.state.getMacAddress());
+    }
+
+    @Test
+    public void exactly64Slots()
+    {
+        String pattern = repeat('H', 64);
+        Editor editor = new Editor(pattern);
+        editor.setText(repeat('a', 64));
+
+        assertTrue(editor.state.isComplete());
+        assertEquals(64, editor.state.getFilledCount());
+        assertEquals(-1L, editor.state.getFilledSlots());
+        assertEquals(0, editor.state.getValue());
+        assertEquals(HexDecoder.INVALID, editor.state.getMacAddress());
+
+        editor.replace(63, " ");
+        assertFalse(editor.state.isComplete());
+        assertEquals(63, editor.state.getFilledCount());
+        assertEquals(Long.MAX_VALUE, editor.state.getFilledSlots());
+    }
+
+    @Test
+    public void moreThan64Slots()
+    {
+        String pattern = repeat('H', 70);
+        Editor editor = new Editor(pattern);
+        editor.setText(repeat('a', 70));
+
+        assertTrue(editor.state.isComplete());
+        assertEquals(70, editor.state.getFilledCount());
+
+        editor.replace(65, " ");
+        assertFalse(editor.state.isComplete());
+        assertEquals(69, editor.state.getFilledCount());
+        assertEquals(-1L, editor.state.getFilledSlots());
+        assertTrue(editor.state.isPositionFilled(64));
+        assertFalse(editor.state.isPositionFilled(65));
+    }
+
+    @Test
+    public void valueIsTrackedUpToMaxDigits()
+    {
+        Editor fifteen = new Editor(repeat('H', HexDecoder.MAX_DIGITS));
+        fifteen.setText("123456789abcdef");
+        assertEquals(0x123456789abcdefL, fifteen.state.getMacAddress());
+
+        fifteen.replace(14, " ");
+        fifteen.replace(14, "0");
+        assertEquals(0x123456789abcde0L, fifteen.state.getMacAddress());
+
+        Editor sixteen = new Editor(repeat('H', HexDecoder.MAX_DIGITS + 1));
+        sixteen.setText("123456789abcdef0");
+        assertTrue(sixteen.state.isComplete());
+        assertEquals(0, sixteen.state.getValue());
+        assertEquals(HexDecoder.INVALID, sixteen.state.getMacAddress());
+    }
+
+    @Test
+    public void maskWithoutSlots()
+    {
+        Editor editor = new Editor("::");
+        editor.setText("::");
+
+        assertFalse(editor.state.isComplete());
+        assertEquals(0, editor.state.getFilledCount());
+        assertEquals(HexDecoder.INVALID, editor.state.getMacAddress());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void filtersMustMatchMask()
+    {
+        new SlotState(CompiledMasks.DEFAULT, new CharFilter[]{new HexCharFilter(' ')});
+    }
+
+    private static String repeat(char c, int count)
+    {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++)
+        {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /* Text with state updated the same way EditMacAddress does it on text changes */
+    private static class Editor
+    {
+        final StringBuilder text = new StringBuilder();
+        final SlotState state;
+
+        Editor(String pattern)
+        {
+            this(compile(pattern), filters(pattern));
+        }
+
+        Editor(CompiledMask mask, CharFilter[] filters)
+        {
+            state = new SlotState(mask, filters);
+        }
+
+        void setText(String newText)
+        {
+            text.setLength(0);
+            text.append(newText);
+            state.update(text, 0, text.length());
+        }
+
+        void replace(int start, String replacement)
+        {
+            text.replace(start, start + replacement.length(), replacement);
+            state.update(text, start, start + replacement.length());
+        }
+
+        /* Same rules as default filters: 'H' is hex digit, everything else is delimiter */
+        private static CompiledMask compile(String pattern)
+        {
+            boolean[] selectable = new boolean[pattern.length()];
+            StringBuilder emptyMask = new StringBuilder();
+            for (int i = 0; i < selectable.length; i++)
+            {
+                selectable[i] = pattern.charAt(i) == 'H';
+                emptyMask.append(selectable[i] ? ' ' : pattern.charAt(i));
+            }
+            return CompiledMask.compile(pattern, selectable, emptyMask.toString(), ' ');
+        }
+
+        private static CharFilter[] filters(String pattern)
+        {
+            CharFilter[] filters = new CharFilter[pattern.length()];
+            for (int i = 0; i < filters.length; i++)
+            {
+                char c = pattern.charAt(i);
+                filters[i] = c == 'H' ? new HexCharFilter(' ') : new DelimiterCharFilter(c);
+            }
+            return filters;
+        }
+    }
+}
@@ -6,7 +6,11 @@ import android.graphics.Rect;
 import android.text.Editable;
 import android.text.InputFilter;
 import android.text.Layout;
+import android.text.Spannable;
 import android.text.Spanned;
+import android.text.TextPaint;
+import android.text.style.CharacterStyle;
+import android.text.style.UpdateAppearance;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.MotionEvent;
@@ -15,7 +19,6 @@ import android.view.inputmethod.InputConnection;
 import android.widget.EditText;
 
 import java.util.HashMap;
-import java.util.LinkedList;
 
 /**
  * EditMacAddress is a small class which extended EditText to provide simpler way to input MAC addresses.
@@ -30,6 +33,10 @@ import java.util.LinkedList;
  * Features:
  * 1. You can specify delimiter character from XML using attribute "delimiter".
  * 2. You can specify filler character from XML using attribute "filler".
+ * 3. You can specify color for unfilled positions and delimiters from XML using attribute
+ *    "emptyTextColor".
+ * 4. You can specify mask from XML using attribute "mask". Value could be either name of mask
+ *    precompiled at build time (see {@link CompiledMasks}) or mask pattern itself.
  */
 public class EditMacAddress extends EditText
 {
@@ -40,14 +47,22 @@ public class EditMacAddress extends EditText
     private char mFiller;
 
     private int mCursorPosition = 0;
-    private int mFirstSelectablePosition = 0;
-    private int mLastSelectablePosition = 0;
 
+    private CompiledMask mMask;
     private String mEmptyMask;
+    private String mMaskAttribute;
+
+    /* Filled positions and entered value, updated incrementally on every text change */
+    private SlotState mSlotState;
 
     private HashMap<Character, CharFilter> mFiltersCache = new HashMap<Character, CharFilter>();
     private CharFilter[] mCharFilters;
 
+    /* One span per mask position, allocated with mask so typing does not allocate anything */
+    private SlotStyleSpan[] mSlotSpans;
+    private int mEmptyTextColor;
+    private boolean mEmptyTextColorEnabled = false;
+
     private boolean mBackspacePressed = false;
     private boolean mDoNotMoveSelection = false;
 
@@ -76,7 +91,27 @@ public class EditMacAddress extends EditText
         setCursorVisible(false);
         setImeOptions(getImeOptions() | EditorInfo.IME_FLAG_NO_EXTRACT_UI);
 
-        setMask("HH:HH:HH:HH:HH:HH");
+        if (mMaskAttribute == null || mMaskAttribute.isEmpty())
+        {
+            setMask(CompiledMasks.DEFAULT);
+        }
+        else
+        {
+            CompiledMask compiled = CompiledMasks.forName(mMaskAttribute);
+            if (compiled == null)
+            {
+                compiled = CompiledMasks.forPattern(mMaskAttribute);
+            }
+
+            if (compiled != null)
+            {
+                setMask(compiled);
+            }
+            else
+            {
+                setMask(mMaskAttribute);
+            }
+        }
 
         setFilters(new InputFilter[]{new MacAddressInputValidator()});
     }
@@ -88,6 +123,12 @@ public class EditMacAddress extends EditText
         try
         {
             fillerStr = attributes.getString(R.styleable.EditMacAddress_filler);
+            mMaskAttribute = attributes.getString(R.styleable.EditMacAddress_mask);
+            if (attributes.hasValue(R.styleable.EditMacAddress_emptyTextColor))
+            {
+                mEmptyTextColor = attributes.getColor(R.styleable.EditMacAddress_emptyTextColor, 0);
+                mEmptyTextColorEnabled = true;
+            }
         } finally
         {
             attributes.recycle();
@@ -103,56 +144,79 @@ public class EditMacAddress extends EditText
         }
     }
 
+    /**
+     * Compile mask at runtime. Prefer {@link #setMask(CompiledMask)} with one of
+     * {@link CompiledMasks} when mask is known at build time.
+     */
     public void setMask(String mask)
     {
-        LinkedList<CharFilter> positions = new LinkedList<CharFilter>();
-        char[] chars = mask.toCharArray();
-
-        int i = 0;
-        StringBuilder maskString = new StringBuilder();
-        while (i < chars.length)
+        int length = mask.length();
+        boolean[] selectable = new boolean[length];
+        StringBuilder maskString = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
         {
-            char maskChar = chars[i];
-            CharFilter filter;
+            CharFilter filter = getCachedFilter(mask.charAt(i));
+            selectable[i] = filter.isSelectable();
+            maskString.append(filter.getFiller());
+        }
 
-            if (mFiltersCache.containsKey(maskChar))
-            {
-                filter = mFiltersCache.get(maskChar);
-            }
-            else
-            {
-                filter = getFilterForCharacter(maskChar);
-                if (filter == null)
-                {
-                    filter = new AnyCharFilter(' ');
-                }
-                mFiltersCache.put(maskChar, filter);
-            }
+        setMask(CompiledMask.compile(mask, selectable, maskString.toString(), mFiller));
+    }
 
-            positions.add(filter);
-            maskString.append(filter.getFiller());
-            if (filter.isSelectable())
+    /**
+     * Use precompiled mask. Precompiled masks assume default filters, so if
+     * {@link #getFilterForCharacter(char)} gives filters which do not agree with mask tables,
+     * mask is compiled again at runtime from its pattern.
+     */
+    public void setMask(CompiledMask mask)
+    {
+        String pattern = mask.getPattern();
+        String emptyMask = mask.getEmptyMask(mFiller);
+        CharFilter[] filters = new CharFilter[pattern.length()];
+        for (int i = 0; i < filters.length; i++)
+        {
+            CharFilter filter = getCachedFilter(pattern.charAt(i));
+            if (filter.isSelectable() != mask.isSelectable(i)
+                    || filter.getFiller() != emptyMask.charAt(i))
             {
-                if (i < mFirstSelectablePosition)
-                {
-                    mFirstSelectablePosition = i;
-                }
-                else if (i > mLastSelectablePosition)
-                {
-                    mLastSelectablePosition = i;
-                }
+                setMask(pattern);
+                return;
             }
-            i++;
+            filters[i] = filter;
+        }
+
+        mMask = mask;
+        mCharFilters = filters;
+        mSlotState = new SlotState(mask, filters);
+        mEmptyMask = emptyMask;
+
+        mSlotSpans = new SlotStyleSpan[mCharFilters.length];
+        for (int i = 0; i < mSlotSpans.length; i++)
+        {
+            mSlotSpans[i] = new SlotStyleSpan();
         }
 
-        mCharFilters = positions.toArray(new CharFilter[positions.size()]);
-        mEmptyMask = maskString.toString();
         setText(mEmptyMask);
     }
 
+    private CharFilter getCachedFilter(char maskChar)
+    {
+        CharFilter filter = mFiltersCache.get(maskChar);
+        if (filter == null)
+        {
+            filter = getFilterForCharacter(maskChar);
+            if (filter == null)
+            {
+                filter = new AnyCharFilter(' ');
+            }
+            mFiltersCache.put(maskChar, filter);
+        }
+        return filter;
+    }
+
     private boolean isPositionSelectable(int position)
     {
-        return position >= 0 && position < getMaskLength() && mCharFilters[position].isSelectable();
+        return position >= 0 && position < getMaskLength() && mMask.isSelectable(position);
     }
 
     private boolean isValidCharForPosition(char c, int pos)
@@ -179,32 +243,28 @@ public class EditMacAddress extends EditText
 
     private int getNextSelectablePosition(int pos)
     {
-        if (pos >= 0)
-            for (int i = pos + 1; i < getMaskLength(); i++)
-                if (mCharFilters[i].isSelectable())
-                    return i;
+        if (pos >= 0 && pos < getMaskLength())
+            return mMask.getNextSelectable(pos);
 
         return getLastSelectablePosition();
     }
 
     private int getPreviousSelectablePosition(int pos)
     {
-        if (pos < getMaskLength())
-            for (int i = pos - 1; i >= 0; i--)
-                if (mCharFilters[i].isSelectable())
-                    return i;
+        if (pos >= 0 && pos < getMaskLength())
+            return mMask.getPreviousSelectable(pos);
 
         return getFirstSelectablePosition();
     }
 
     private int getFirstSelectablePosition()
     {
-        return mFirstSelectablePosition;
+        return mMask != null ? mMask.getFirstSelectable() : 0;
     }
 
     private int getLastSelectablePosition()
     {
-        return mLastSelectablePosition;
+        return mMask != null ? mMask.getLastSelectable() : 0;
     }
 
     protected CharFilter getFilterForCharacter(char maskCharacter)
@@ -250,6 +310,105 @@ public class EditMacAddress extends EditText
         mFiller = filler;
     }
 
+    /**
+     * Set color used to draw unfilled positions and delimiters. Filled positions are drawn with
+     * regular text color.
+     */
+    public void setEmptyTextColor(int color)
+    {
+        mEmptyTextColor = color;
+        if (!mEmptyTextColorEnabled)
+        {
+            mEmptyTextColorEnabled = true;
+            Editable text = getText();
+            if (text != null)
+            {
+                updateSlotStyles(text, 0, text.length());
+            }
+        }
+        invalidate();
+    }
+
+    public int getEmptyTextColor()
+    {
+        return mEmptyTextColor;
+    }
+
+    /**
+     * Update filled state of preallocated spans for positions in range [start, end) and attach
+     * them to text if they were dropped by replacement. Nothing is allocated here.
+     */
+    private void updateSlotStyles(Spannable text, int start, int end)
+    {
+        if (!mEmptyTextColorEnabled || mSlotSpans == null)
+        {
+            return;
+        }
+
+        int last = Math.min(end, Math.min(text.length(), mSlotSpans.length));
+        for (int i = Math.max(start, 0); i < last; i++)
+        {
+            SlotStyleSpan span = mSlotSpans[i];
+            span.mFilled = isPositionFilled(i);
+            if (text.getSpanStart(span) != i || text.getSpanEnd(span) != i + 1)
+            {
+                text.setSpan(span, i, i + 1, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            }
+        }
+    }
+
+    private boolean isPositionFilled(int position)
+    {
+        return mSlotState != null && mSlotState.isPositionFilled(position);
+    }
+
+    /**
+     * @return true if every selectable position is filled. Answered without scanning text.
+     */
+    public boolean isComplete()
+    {
+        return mSlotState != null && mSlotState.isComplete();
+    }
+
+    /**
+     * @return count of filled selectable positions. Answered without scanning text.
+     */
+    public int getFilledCount()
+    {
+        return mSlotState != null ? mSlotState.getFilledCount() : 0;
+    }
+
+    /**
+     * @return bit mask where bit n is set if n-th selectable position is filled. Only first 64
+     * positions are included.
+     */
+    public long getFilledSlots()
+    {
+        return mSlotState != null ? mSlotState.getFilledSlots() : 0;
+    }
+
+    /**
+     * Entered digits packed into number, first digit is the most significant one. Positions
+     * without hex digit are zeros. Always 0 for masks with more than
+     * {@link HexDecoder#MAX_DIGITS} selectable positions.
+     */
+    public long getValue()
+    {
+        return mSlotState != null ? mSlotState.getValue() : 0;
+    }
+
+    /**
+     * Entered address as number, first digit is the most significant one. Works for masks with at
+     * most {@link HexDecoder#MAX_DIGITS} selectable positions.
+     *
+     * @return entered value or {@link HexDecoder#INVALID} if not all positions are filled with
+     * hex digits
+     */
+    public long getMacAddress()
+    {
+        return mSlotState != null ? mSlotState.getMacAddress() : HexDecoder.INVALID;
+    }
+
     public String getUnformattedText()
     {
         StringBuilder unformatted = new StringBuilder(getText());
@@ -305,6 +464,20 @@ public class EditMacAddress extends EditText
         }
 
         super.onTextChanged(text, start, before, after);
+
+        Editable editable = getText();
+        if (editable != null)
+        {
+            /* Length change means positions shifted, so everything should be recalculated */
+            int from = before == after ? start : 0;
+            int to = before == after ? start + after : editable.length();
+            if (mSlotState != null)
+            {
+                mSlotState.update(editable, from, to);
+            }
+            updateSlotStyles(editable, from, to);
+        }
+
         if (mDoNotMoveSelection)
         {
             mDoNotMoveSelection = false;
@@ -328,6 +501,24 @@ public class EditMacAddress extends EditText
         return new InputConnectionWrapper(super.onCreateInputConnection(outAttrs));
     }
 
+    /**
+     * Span with mutable state, so switching between filled and empty appearance is just a flag
+     * change instead of removing one span and adding another.
+     */
+    private class SlotStyleSpan extends CharacterStyle implements UpdateAppearance
+    {
+        private boolean mFilled = false;
+
+        @Override
+        public void updateDrawState(TextPaint tp)
+        {
+            if (!mFilled)
+            {
+                tp.setColor(mEmptyTextColor);
+            }
+        }
+    }
+
     private class MacAddressInputValidator implements InputFilter
     {
         @Override